@@ -1,6 +1,7 @@
 package com.tgrestart;
 
 import com.tgrestart.command.RestartCommand;
+import com.tgrestart.diagnostic.FlightRecorderManager;
 import com.tgrestart.manager.MessageManager;
 import com.tgrestart.manager.RestartManager;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -14,6 +15,7 @@ public class TGRestart extends JavaPlugin {
     private static TGRestart instance;
     private RestartManager restartManager;
     private MessageManager messageManager;
+    private FlightRecorderManager flightRecorderManager;
 
     @Override
     public void onEnable() {
@@ -26,6 +28,8 @@ public class TGRestart extends JavaPlugin {
         // Initialize managers
         messageManager = new MessageManager(this);
         restartManager = new RestartManager(this);
+        flightRecorderManager = new FlightRecorderManager(this);
+        flightRecorderManager.start();
 
         // Register commands
         RestartCommand restartCommand = new RestartCommand(this);
@@ -47,6 +51,10 @@ public class TGRestart extends JavaPlugin {
             getLogger().info("Cancelled active restart timer due to plugin shutdown");
         }
 
+        if (flightRecorderManager != null) {
+            flightRecorderManager.stop();
+        }
+
         getLogger().info("TGRestart has been disabled!");
     }
 
@@ -74,12 +82,21 @@ public class TGRestart extends JavaPlugin {
         return messageManager;
     }
 
+    /**
+     * Get the flight recorder manager
+     * @return FlightRecorderManager instance
+     */
+    public FlightRecorderManager getFlightRecorderManager() {
+        return flightRecorderManager;
+    }
+
     /**
      * Reload the plugin configuration
      */
     public void reloadPlugin() {
         reloadConfig();
         messageManager = new MessageManager(this);
+        flightRecorderManager.reload();
         if (getConfig().getBoolean("debug", false)) {
             getLogger().info("Configuration reloaded successfully");
         }
@@ -0,0 +1,201 @@
+package com.tgrestart.diagnostic;
+
+import com.tgrestart.TGRestart;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.bukkit.Bukkit;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps a continuous, bounded Java Flight Recorder recording and dumps it
+ * before a restart so the minutes leading up to it can be analyzed
+ */
+public class FlightRecorderManager {
+
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final TGRestart plugin;
+    private Recording recording;
+    private String recordingSettings;
+
+    public FlightRecorderManager(TGRestart plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Start the continuous recording if enabled in the config
+     */
+    public void start() {
+        if (recording != null || !plugin.getConfig().getBoolean("flight-recorder.enabled", false)) {
+            return;
+        }
+
+        recording = createRecording();
+        recordingSettings = recording != null ? getConfiguredSettings() : null;
+    }
+
+    /**
+     * Apply reloaded config. A running recording is only replaced when the
+     * flight-recorder settings changed, and the new recording is started
+     * before the old one is closed so the recorded history is not lost.
+     */
+    public void reload() {
+        if (!plugin.getConfig().getBoolean("flight-recorder.enabled", false)) {
+            stop();
+            return;
+        }
+
+        String settings = getConfiguredSettings();
+        if (recording != null && settings.equals(recordingSettings)) {
+            return;
+        }
+
+        Recording newRecording = createRecording();
+        if (newRecording == null) {
+            return;
+        }
+
+        stop();
+        recording = newRecording;
+        recordingSettings = settings;
+    }
+
+    /**
+     * Create and start a recording from the current config
+     * @return Started recording, or null if it could not be started
+     */
+    private Recording createRecording() {
+        if (!FlightRecorder.isAvailable()) {
+            plugin.getLogger().warning("Java Flight Recorder is not available on this JVM");
+            return null;
+        }
+
+        String settings = plugin.getConfig().getString("flight-recorder.settings", "default");
+        int maxAgeMinutes = Math.max(1, plugin.getConfig().getInt("flight-recorder.max-age-minutes", 10));
+        int maxSizeMb = Math.max(1, plugin.getConfig().getInt("flight-recorder.max-size-mb", 100));
+
+        try {
+            Recording newRecording = new Recording(Configuration.getConfiguration(settings));
+            newRecording.setName("TGRestart");
+            // Max age and size are only enforced on the disk-backed repository
+            newRecording.setToDisk(true);
+            newRecording.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+            newRecording.setMaxSize(maxSizeMb * 1024L * 1024L);
+            newRecording.start();
+            plugin.debug("Started flight recording with '" + settings + "' settings, keeping "
+                    + maxAgeMinutes + " minutes / " + maxSizeMb + " MB");
+            return newRecording;
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            plugin.getLogger().warning("Failed to start flight recording: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Get the configured recording settings, used to detect changes on reload
+     * @return Settings key
+     */
+    private String getConfiguredSettings() {
+        return plugin.getConfig().getString("flight-recorder.settings", "default")
+                + ":" + plugin.getConfig().getInt("flight-recorder.max-age-minutes", 10)
+                + ":" + plugin.getConfig().getInt("flight-recorder.max-size-mb", 100);
+    }
+
+    /**
+     * Stop and discard the continuous recording
+     */
+    public void stop() {
+        if (recording == null) {
+            return;
+        }
+
+        recording.close();
+        recording = null;
+        recordingSettings = null;
+        plugin.debug("Stopped flight recording");
+    }
+
+    /**
+     * Dump the recording to a timestamped file and rotate old dumps.
+     * Copying the repository chunks can take a while for large recordings,
+     * so the dump runs in an async task; wait on the returned future with a
+     * timeout before shutting the server down.
+     * @return Future completed once the dump has been written or has failed
+     */
+    public CompletableFuture<Void> dumpAsync() {
+        if (recording == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        File dumpFolder = new File(plugin.getDataFolder(), "jfr");
+        int maxDumps = Math.max(1, plugin.getConfig().getInt("flight-recorder.max-dumps", 5));
+        Recording dumpedRecording = recording;
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                dump(dumpedRecording, dumpFolder, maxDumps);
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Failed to dump flight recording: " + e.getMessage());
+            } finally {
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Write a recording to a timestamped file and rotate old dumps
+     * @param dumpedRecording Recording to dump
+     * @param dumpFolder Folder to write the dump to
+     * @param maxDumps Number of dumps to keep
+     */
+    private void dump(Recording dumpedRecording, File dumpFolder, int maxDumps) {
+        if (!dumpFolder.isDirectory() && !dumpFolder.mkdirs()) {
+            plugin.getLogger().warning("Could not create flight recording folder " + dumpFolder.getPath());
+            return;
+        }
+
+        File dumpFile = new File(dumpFolder, "restart-" + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".jfr");
+        long start = System.nanoTime();
+        try {
+            dumpedRecording.dump(dumpFile.toPath());
+            plugin.getLogger().info("Flight recording dumped to " + dumpFile.getPath()
+                    + " in " + (System.nanoTime() - start) / 1_000_000L + "ms");
+        } catch (IOException | IllegalStateException e) {
+            plugin.getLogger().warning("Failed to dump flight recording: " + e.getMessage());
+            return;
+        }
+
+        rotateDumps(dumpFolder, maxDumps);
+    }
+
+    /**
+     * Delete the oldest dumps beyond the configured limit
+     * @param dumpFolder Folder containing the dumps
+     * @param maxDumps Number of dumps to keep
+     */
+    private void rotateDumps(File dumpFolder, int maxDumps) {
+        File[] dumps = dumpFolder.listFiles((dir, name) -> name.startsWith("restart-") && name.endsWith(".jfr"));
+        if (dumps == null || dumps.length <= maxDumps) {
+            return;
+        }
+
+        // Timestamped names sort chronologically, newest first after reversing
+        Arrays.sort(dumps, Comparator.comparing(File::getName).reversed());
+        for (int i = maxDumps; i < dumps.length; i++) {
+            if (dumps[i].delete()) {
+                plugin.getLogger().info("Deleted old flight recording " + dumps[i].getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.tgrestart.diagnostic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Force-halts the JVM if it has not exited within a deadline after a restart
+ * was triggered, writing a full thread dump first so the cause of the hang
+ * can be investigated.
+ * Only JDK classes are used once armed, since the plugin class loader may
+ * already be closed by the time the deadline passes.
+ */
+public class ShutdownWatchdog implements Runnable {
+
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final File dumpFolder;
+    private final long timeoutSeconds;
+    private final Logger logger;
+
+    /**
+     * @param dumpFolder Folder to write the thread dump to
+     * @param timeoutSeconds Seconds to wait for the JVM to exit
+     * @param logger Logger to report to
+     */
+    public ShutdownWatchdog(File dumpFolder, long timeoutSeconds, Logger logger) {
+        this.dumpFolder = dumpFolder;
+        this.timeoutSeconds = timeoutSeconds;
+        this.logger = logger;
+    }
+
+    /**
+     * Start the watchdog on a daemon thread so it never keeps the JVM alive
+     */
+    public void arm() {
+        Thread thread = new Thread(this, "TGRestart Shutdown Watchdog");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Shutdown watchdog armed, halting in " + timeoutSeconds + " seconds if the server has not exited");
+    }
+
+    @Override
+    public void run() {
+        try {
+            Thread.sleep(timeoutSeconds * 1000L);
+        } catch (InterruptedException e) {
+            return;
+        }
+
+        logger.severe("Server did not exit within " + timeoutSeconds + " seconds of the restart, forcing halt");
+
+        try {
+            File dumpFile = writeThreadDump();
+            logger.severe("Thread dump written to " + dumpFile.getAbsolutePath());
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, "Failed to write thread dump", e);
+        }
+
+        Runtime.getRuntime().halt(1);
+    }
+
+    /**
+     * Write a dump of all threads, including held locks and lock owners
+     * @return The written dump file
+     * @throws IOException If the file could not be written
+     */
+    private File writeThreadDump() throws IOException {
+        if (!dumpFolder.isDirectory() && !dumpFolder.mkdirs()) {
+            throw new IOException("Could not create " + dumpFolder.getAbsolutePath());
+        }
+
+        File dumpFile = new File(dumpFolder, "shutdown-hang-" + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".txt");
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        ThreadInfo[] threads = threadBean.dumpAllThreads(
+                threadBean.isObjectMonitorUsageSupported(),
+                threadBean.isSynchronizerUsageSupported()
+        );
+        long[] deadlocked = threadBean.findDeadlockedThreads();
+
+        try (PrintWriter writer = new PrintWriter(dumpFile, StandardCharsets.UTF_8)) {
+            writer.println("Shutdown hang thread dump at " + LocalDateTime.now());
+            writer.println("Server did not exit within " + timeoutSeconds + " seconds of the restart");
+            if (deadlocked != null) {
+                writer.println("Deadlocked threads detected: " + deadlocked.length);
+            }
+            writer.println();
+
+            for (ThreadInfo thread : threads) {
+                writeThread(writer, thread);
+            }
+        }
+        return dumpFile;
+    }
+
+    /**
+     * Write a single thread with its full stack trace and lock information
+     * @param writer Writer to write to
+     * @param thread Thread to write
+     */
+    private void writeThread(PrintWriter writer, ThreadInfo thread) {
+        StringBuilder header = new StringBuilder()
+                .append('"').append(thread.getThreadName()).append('"')
+                .append(thread.isDaemon() ? " daemon" : "")
+                .append(" #").append(thread.getThreadId())
+                .append(' ').append(thread.getThreadState());
+        if (thread.getLockName() != null) {
+            header.append(" on ").append(thread.getLockName());
+        }
+        if (thread.getLockOwnerName() != null) {
+            header.append(" owned by \"").append(thread.getLockOwnerName())
+                    .append("\" #").append(thread.getLockOwnerId());
+        }
+        writer.println(header);
+
+        StackTraceElement[] stack = thread.getStackTrace();
+        for (int depth = 0; depth < stack.length; depth++) {
+            writer.println("\tat " + stack[depth]);
+
+            LockInfo blockedOn = thread.getLockInfo();
+            if (depth == 0 && blockedOn != null) {
+                String action = thread.getThreadState() == Thread.State.BLOCKED ? "waiting to lock " : "waiting on ";
+                writer.println("\t- " + action + blockedOn);
+            }
+
+            for (MonitorInfo monitor : thread.getLockedMonitors()) {
+                if (monitor.getLockedStackDepth() == depth) {
+                    writer.println("\t- locked " + monitor);
+                }
+            }
+        }
+
+        LockInfo[] synchronizers = thread.getLockedSynchronizers();
+        if (synchronizers.length > 0) {
+            writer.println("\tLocked ownable synchronizers:");
+            for (LockInfo synchronizer : synchronizers) {
+                writer.println("\t- " + synchronizer);
+            }
+        }
+        writer.println();
+    }
+}
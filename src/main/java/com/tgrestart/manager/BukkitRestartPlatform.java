@@ -0,0 +1,156 @@
+package com.tgrestart.manager;
+
+import com.tgrestart.TGRestart;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.title.Title;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * RestartPlatform backed by the running server and the plugin's managers
+ */
+class BukkitRestartPlatform implements RestartPlatform {
+
+    private final TGRestart plugin;
+
+    BukkitRestartPlatform(TGRestart plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public FileConfiguration getConfig() {
+        return plugin.getConfig();
+    }
+
+    @Override
+    public Logger getLogger() {
+        return plugin.getLogger();
+    }
+
+    @Override
+    public void debug(String message) {
+        plugin.debug(message);
+    }
+
+    @Override
+    public File getDataFolder() {
+        return plugin.getDataFolder();
+    }
+
+    @Override
+    public BukkitTask runTaskTimer(Runnable task, long delay, long period) {
+        return Bukkit.getScheduler().runTaskTimer(plugin, task, delay, period);
+    }
+
+    @Override
+    public BukkitTask runTaskLater(Runnable task, long delay) {
+        return Bukkit.getScheduler().runTaskLater(plugin, task, delay);
+    }
+
+    @Override
+    public boolean isQueued(BukkitTask task) {
+        return Bukkit.getScheduler().isQueued(task.getTaskId());
+    }
+
+    @Override
+    public double getAverageTickTime() {
+        return Bukkit.getServer().getAverageTickTime();
+    }
+
+    @Override
+    public Collection<? extends Player> getOnlinePlayers() {
+        return Bukkit.getOnlinePlayers();
+    }
+
+    @Override
+    public void sendConsoleMessage(Component message) {
+        Bukkit.getConsoleSender().sendMessage(message);
+    }
+
+    @Override
+    public void dispatchConsoleCommand(String command) {
+        Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
+    }
+
+    @Override
+    public void shutdown() {
+        Bukkit.shutdown();
+    }
+
+    @Override
+    public void restart() {
+        Bukkit.spigot().restart();
+    }
+
+    @Override
+    public CompletableFuture<Void> dumpFlightRecording() {
+        return plugin.getFlightRecorderManager().dumpAsync();
+    }
+
+    @Override
+    public void broadcastScheduleMessage(String timeString) {
+        plugin.getMessageManager().broadcastScheduleMessage(timeString);
+    }
+
+    @Override
+    public void broadcastCancelMessage() {
+        plugin.getMessageManager().broadcast(plugin.getMessageManager().getMessage("cancel-message"));
+    }
+
+    @Override
+    public void sendCountdownTitle(String timeString) {
+        plugin.getMessageManager().sendCountdownTitle(timeString);
+    }
+
+    @Override
+    public void sendActionBar(String timeString) {
+        plugin.getMessageManager().sendActionBar(timeString);
+    }
+
+    @Override
+    public void broadcastWarning(String timeString) {
+        plugin.getMessageManager().broadcastWarning(timeString);
+    }
+
+    @Override
+    public Title buildCountdownTitle(String timeString) {
+        return plugin.getMessageManager().buildCountdownTitle(timeString);
+    }
+
+    @Override
+    public Component buildActionBar(String timeString) {
+        return plugin.getMessageManager().buildActionBar(timeString);
+    }
+
+    @Override
+    public Component buildWarning(String timeString) {
+        return plugin.getMessageManager().buildWarning(timeString);
+    }
+
+    @Override
+    public boolean countdownSubtitleShowsTime() {
+        return plugin.getMessageManager().countdownSubtitleShowsTime();
+    }
+
+    @Override
+    public void sendCountdownDisplays(Collection<? extends Player> players, Title title, Component actionBar, Component chat) {
+        plugin.getMessageManager().sendCountdownDisplays(players, title, actionBar, chat);
+    }
+
+    @Override
+    public void sendFinalTitle() {
+        plugin.getMessageManager().sendFinalTitle();
+    }
+
+    @Override
+    public Component getKickMessage() {
+        return plugin.getMessageManager().getKickMessage();
+    }
+}
@@ -0,0 +1,162 @@
+package com.tgrestart.manager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tracks restart countdown time and which display milestones have fired.
+ * Seconds are counted from elapsed ticks rather than task runs, so the
+ * countdown does not drift when the update interval is not 20 ticks.
+ * Has no server dependency so the countdown can be driven directly in tests.
+ */
+public class CountdownTimer {
+
+    public static final int TICKS_PER_SECOND = 20;
+
+    private final Set<Integer> titleIntervals;
+    private final Set<Integer> actionBarIntervals;
+    private final Set<Integer> broadcastIntervals;
+    private final Set<Integer> shownTitleIntervals;
+    private final Set<Integer> shownActionBarIntervals;
+    private final Set<Integer> broadcastedIntervals;
+    private int remainingSeconds;
+    private int elapsedTicks;
+    private boolean finished;
+    private boolean cancelled;
+
+    /**
+     * @param seconds Seconds until restart
+     * @param titleIntervals Seconds at which a title is shown
+     * @param actionBarIntervals Seconds at which an action bar is shown
+     * @param broadcastIntervals Seconds at which a warning is broadcast
+     */
+    public CountdownTimer(int seconds, Collection<Integer> titleIntervals,
+                          Collection<Integer> actionBarIntervals, Collection<Integer> broadcastIntervals) {
+        this.titleIntervals = new HashSet<>(titleIntervals);
+        this.actionBarIntervals = new HashSet<>(actionBarIntervals);
+        this.broadcastIntervals = new HashSet<>(broadcastIntervals);
+        this.shownTitleIntervals = new HashSet<>();
+        this.shownActionBarIntervals = new HashSet<>();
+        this.broadcastedIntervals = new HashSet<>();
+        this.remainingSeconds = seconds;
+        this.elapsedTicks = TICKS_PER_SECOND;
+    }
+
+    /**
+     * Advance the countdown by one task run.
+     * Every second crossed since the last run is marked as fired, but only the
+     * latest due title, action bar and broadcast are returned, so a long update
+     * interval never sends several displays in the same tick.
+     * @param updateInterval Ticks until the next task run
+     * @return Displays due in this run
+     */
+    public Step advance(int updateInterval) {
+        if (finished || cancelled) {
+            return Step.NONE;
+        }
+
+        int titleSecond = -1;
+        int actionBarSecond = -1;
+        int broadcastSecond = -1;
+
+        while (elapsedTicks >= TICKS_PER_SECOND) {
+            elapsedTicks -= TICKS_PER_SECOND;
+
+            if (remainingSeconds <= 0) {
+                finished = true;
+                // The final title replaces any countdown title sent in this run
+                return new Step(-1, -1, broadcastSecond, true);
+            }
+
+            if (titleIntervals.contains(remainingSeconds) && shownTitleIntervals.add(remainingSeconds)) {
+                titleSecond = remainingSeconds;
+            }
+            if (actionBarIntervals.contains(remainingSeconds) && shownActionBarIntervals.add(remainingSeconds)) {
+                actionBarSecond = remainingSeconds;
+            }
+            if (broadcastIntervals.contains(remainingSeconds) && broadcastedIntervals.add(remainingSeconds)) {
+                broadcastSecond = remainingSeconds;
+            }
+
+            remainingSeconds--;
+        }
+
+        elapsedTicks += updateInterval;
+
+        if (titleSecond < 0 && actionBarSecond < 0 && broadcastSecond < 0) {
+            return Step.NONE;
+        }
+        return new Step(titleSecond, actionBarSecond, broadcastSecond, false);
+    }
+
+    /**
+     * Stop the countdown, no further displays are returned afterwards
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Get remaining seconds until restart
+     * @return Remaining seconds
+     */
+    public int getRemainingSeconds() {
+        return remainingSeconds;
+    }
+
+    /**
+     * Displays due in a single countdown task run
+     */
+    public static final class Step {
+
+        static final Step NONE = new Step(-1, -1, -1, false);
+
+        private final int titleSecond;
+        private final int actionBarSecond;
+        private final int broadcastSecond;
+        private final boolean finished;
+
+        Step(int titleSecond, int actionBarSecond, int broadcastSecond, boolean finished) {
+            this.titleSecond = titleSecond;
+            this.actionBarSecond = actionBarSecond;
+            this.broadcastSecond = broadcastSecond;
+            this.finished = finished;
+        }
+
+        /**
+         * @return Second to show a title for, or -1 if none is due
+         */
+        public int getTitleSecond() {
+            return titleSecond;
+        }
+
+        /**
+         * @return Second to show an action bar for, or -1 if none is due
+         */
+        public int getActionBarSecond() {
+            return actionBarSecond;
+        }
+
+        /**
+         * @return Second to broadcast a warning for, or -1 if none is due
+         */
+        public int getBroadcastSecond() {
+            return broadcastSecond;
+        }
+
+        /**
+         * @return True if the countdown reached zero and the restart should execute
+         */
+        public boolean isFinished() {
+            return finished;
+        }
+
+        /**
+         * @return True if any display is due
+         */
+        public boolean hasDisplays() {
+            return titleSecond >= 0 || actionBarSecond >= 0 || broadcastSecond >= 0;
+        }
+    }
+}
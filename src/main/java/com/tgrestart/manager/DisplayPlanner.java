@@ -0,0 +1,176 @@
+package com.tgrestart.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decides how the displays due in a countdown step are sent.
+ * Under tick pressure the displays are merged into a single pass over the
+ * players, an action bar repeating the time already shown in the title is
+ * dropped, and non-critical displays are spread over the next few ticks.
+ * Critical milestones are always sent in full on the current tick.
+ * Has no server dependency so the rules can be tested directly.
+ */
+public class DisplayPlanner {
+
+    /**
+     * Spreading stops one tick short of a second so every chunk is sent
+     * before the next second's displays
+     */
+    public static final int MAX_SPREAD_TICKS = CountdownTimer.TICKS_PER_SECOND - 1;
+
+    private final boolean enabled;
+    private final double msptThreshold;
+    private final int criticalSeconds;
+    private final int spreadTicks;
+
+    /**
+     * @param enabled Whether throttling is enabled
+     * @param msptThreshold Average tick time in milliseconds at which throttling starts
+     * @param criticalSeconds Seconds at or below which displays are never dropped or spread
+     * @param spreadTicks Ticks to spread non-critical displays over, capped at MAX_SPREAD_TICKS
+     */
+    public DisplayPlanner(boolean enabled, double msptThreshold, int criticalSeconds, int spreadTicks) {
+        this.enabled = enabled;
+        this.msptThreshold = msptThreshold;
+        this.criticalSeconds = criticalSeconds;
+        this.spreadTicks = Math.max(1, Math.min(spreadTicks, MAX_SPREAD_TICKS));
+    }
+
+    /**
+     * Plan the sends for a countdown step
+     * @param step Displays due in this countdown run
+     * @param averageTickTime Current average tick time in milliseconds
+     * @param subtitleShowsTime Whether the countdown title's subtitle contains the remaining time
+     * @param playerCount Number of online players
+     * @return Planned sends
+     */
+    public Plan plan(CountdownTimer.Step step, double averageTickTime, boolean subtitleShowsTime, int playerCount) {
+        int titleSecond = step.getTitleSecond();
+        int actionBarSecond = step.getActionBarSecond();
+        int broadcastSecond = step.getBroadcastSecond();
+
+        if (!enabled || averageTickTime < msptThreshold) {
+            return new Plan(false, titleSecond, actionBarSecond, broadcastSecond, Collections.emptyList());
+        }
+
+        // The most urgent display decides whether the batch is critical
+        int seconds = Integer.MAX_VALUE;
+        for (int second : new int[]{titleSecond, actionBarSecond, broadcastSecond}) {
+            if (second >= 0) {
+                seconds = Math.min(seconds, second);
+            }
+        }
+        boolean critical = seconds <= criticalSeconds;
+
+        // Outside critical seconds, an action bar repeating the time already in the subtitle is redundant
+        if (!critical && subtitleShowsTime && titleSecond >= 0 && actionBarSecond == titleSecond) {
+            actionBarSecond = -1;
+        }
+
+        List<Chunk> chunks = new ArrayList<>();
+        if (critical || spreadTicks <= 1 || playerCount < spreadTicks) {
+            chunks.add(new Chunk(0, playerCount, 0));
+        } else {
+            int chunkSize = (playerCount + spreadTicks - 1) / spreadTicks;
+            for (int start = 0, delay = 0; start < playerCount; start += chunkSize, delay++) {
+                chunks.add(new Chunk(start, Math.min(start + chunkSize, playerCount), delay));
+            }
+        }
+
+        return new Plan(true, titleSecond, actionBarSecond, broadcastSecond, chunks);
+    }
+
+    /**
+     * Planned sends for a countdown step
+     */
+    public static final class Plan {
+
+        private final boolean merged;
+        private final int titleSecond;
+        private final int actionBarSecond;
+        private final int broadcastSecond;
+        private final List<Chunk> chunks;
+
+        private Plan(boolean merged, int titleSecond, int actionBarSecond, int broadcastSecond, List<Chunk> chunks) {
+            this.merged = merged;
+            this.titleSecond = titleSecond;
+            this.actionBarSecond = actionBarSecond;
+            this.broadcastSecond = broadcastSecond;
+            this.chunks = chunks;
+        }
+
+        /**
+         * @return True if displays are merged into chunked passes, false to send each display separately
+         */
+        public boolean isMerged() {
+            return merged;
+        }
+
+        /**
+         * @return Second to show a title for, or -1 if none is sent
+         */
+        public int getTitleSecond() {
+            return titleSecond;
+        }
+
+        /**
+         * @return Second to show an action bar for, or -1 if none is sent
+         */
+        public int getActionBarSecond() {
+            return actionBarSecond;
+        }
+
+        /**
+         * @return Second to broadcast a warning for, or -1 if none is sent
+         */
+        public int getBroadcastSecond() {
+            return broadcastSecond;
+        }
+
+        /**
+         * @return Player ranges to send merged displays to, empty if not merged
+         */
+        public List<Chunk> getChunks() {
+            return chunks;
+        }
+    }
+
+    /**
+     * Range of players sent to on a given tick
+     */
+    public static final class Chunk {
+
+        private final int fromIndex;
+        private final int toIndex;
+        private final int delay;
+
+        private Chunk(int fromIndex, int toIndex, int delay) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.delay = delay;
+        }
+
+        /**
+         * @return First player index, inclusive
+         */
+        public int getFromIndex() {
+            return fromIndex;
+        }
+
+        /**
+         * @return Last player index, exclusive
+         */
+        public int getToIndex() {
+            return toIndex;
+        }
+
+        /**
+         * @return Ticks to wait before sending, 0 for the current tick
+         */
+        public int getDelay() {
+            return delay;
+        }
+    }
+}
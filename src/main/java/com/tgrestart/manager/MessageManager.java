@@ -5,12 +5,14 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.title.Title;
 import org.bukkit.Bukkit;
+import org.bukkit.Server;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
 import java.io.File;
 import java.time.Duration;
+import java.util.Collection;
 
 /**
  * Manages all message formatting and display using MiniMessage
@@ -85,9 +87,9 @@ public class MessageManager {
      * @param timeString Time string to replace %time% with
      */
     public void broadcastWarning(String timeString) {
-        String message = messagesConfig.getString("warning-message", "");
-        if (!message.isEmpty()) {
-            broadcast(parse(message, "%time%", timeString));
+        Component message = buildWarning(timeString);
+        if (message != null) {
+            broadcast(message);
         }
     }
 
@@ -100,31 +102,57 @@ public class MessageManager {
      * @param fadeOut Fade out time in ticks
      */
     public void sendTitleToAll(String titleText, String subtitleText, int fadeIn, int stay, int fadeOut) {
-        Component title = parse(titleText);
-        Component subtitle = parse(subtitleText);
+        Title titleObj = buildTitle(titleText, subtitleText, fadeIn, stay, fadeOut);
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            player.showTitle(titleObj);
+        }
+    }
 
-        Title titleObj = Title.title(
-                title,
-                subtitle,
+    /**
+     * Build a title
+     * @param titleText Title text
+     * @param subtitleText Subtitle text
+     * @param fadeIn Fade in time in ticks
+     * @param stay Stay time in ticks
+     * @param fadeOut Fade out time in ticks
+     * @return Built Title
+     */
+    private Title buildTitle(String titleText, String subtitleText, int fadeIn, int stay, int fadeOut) {
+        return Title.title(
+                parse(titleText),
+                parse(subtitleText),
                 Title.Times.times(
                         Duration.ofMillis(fadeIn * 50L),
                         Duration.ofMillis(stay * 50L),
                         Duration.ofMillis(fadeOut * 50L)
                 )
         );
+    }
+
+    /**
+     * Send countdown title to all online players
+     * @param timeString Time string to display
+     */
+    public void sendCountdownTitle(String timeString) {
+        Title title = buildCountdownTitle(timeString);
+        if (title == null) {
+            return;
+        }
 
         for (Player player : Bukkit.getOnlinePlayers()) {
-            player.showTitle(titleObj);
+            player.showTitle(title);
         }
     }
 
     /**
-     * Send countdown title to all online players
+     * Build the countdown title
      * @param timeString Time string to display
+     * @return Countdown Title, or null if titles are disabled
      */
-    public void sendCountdownTitle(String timeString) {
+    public Title buildCountdownTitle(String timeString) {
         if (!plugin.getConfig().getBoolean("titles.enabled", true)) {
-            return;
+            return null;
         }
 
         String titleText = plugin.getConfig().getString("titles.title", "<red><bold>Server Restart");
@@ -135,7 +163,16 @@ public class MessageManager {
 
         subtitleText = subtitleText.replace("%time%", timeString);
 
-        sendTitleToAll(titleText, subtitleText, fadeIn, stay, fadeOut);
+        return buildTitle(titleText, subtitleText, fadeIn, stay, fadeOut);
+    }
+
+    /**
+     * Check if the countdown title is enabled and its subtitle shows the remaining time
+     * @return True if the countdown subtitle contains %time%
+     */
+    public boolean countdownSubtitleShowsTime() {
+        return plugin.getConfig().getBoolean("titles.enabled", true)
+                && plugin.getConfig().getString("titles.subtitle", "<yellow>Restarting in <white>%time%").contains("%time%");
     }
 
     /**
@@ -160,18 +197,68 @@ public class MessageManager {
      * @param timeString Time string to display
      */
     public void sendActionBar(String timeString) {
-        if (!plugin.getConfig().getBoolean("action-bar.enabled", true)) {
+        Component message = buildActionBar(timeString);
+        if (message == null) {
             return;
         }
 
-        String format = plugin.getConfig().getString("action-bar.format", "<gold><bold>⚠ <yellow>Restart in <white>%time% <gold><bold>⚠");
-        Component message = parse(format, "%time%", timeString);
-
         for (Player player : Bukkit.getOnlinePlayers()) {
             player.sendActionBar(message);
         }
     }
 
+    /**
+     * Build the countdown action bar
+     * @param timeString Time string to display
+     * @return Action bar Component, or null if the action bar is disabled
+     */
+    public Component buildActionBar(String timeString) {
+        if (!plugin.getConfig().getBoolean("action-bar.enabled", true)) {
+            return null;
+        }
+
+        String format = plugin.getConfig().getString("action-bar.format", "<gold><bold>⚠ <yellow>Restart in <white>%time% <gold><bold>⚠");
+        return parse(format, "%time%", timeString);
+    }
+
+    /**
+     * Build the countdown warning chat message
+     * @param timeString Time string to replace %time% with
+     * @return Warning Component, or null if no warning message is configured
+     */
+    public Component buildWarning(String timeString) {
+        String message = messagesConfig.getString("warning-message", "");
+        if (message.isEmpty()) {
+            return null;
+        }
+        return parse(message, "%time%", timeString);
+    }
+
+    /**
+     * Send several countdown displays to the given players in a single pass
+     * @param players Players to send to
+     * @param title Title to show, or null to skip
+     * @param actionBar Action bar to send, or null to skip
+     * @param chat Chat message to send, or null to skip
+     */
+    public void sendCountdownDisplays(Collection<? extends Player> players, Title title, Component actionBar, Component chat) {
+        for (Player player : players) {
+            if (!player.isOnline()) {
+                continue;
+            }
+            if (title != null) {
+                player.showTitle(title);
+            }
+            if (actionBar != null) {
+                player.sendActionBar(actionBar);
+            }
+            // Same permission filter as Server#broadcast, so the same players get the warning
+            if (chat != null && player.hasPermission(Server.BROADCAST_CHANNEL_USERS)) {
+                player.sendMessage(chat);
+            }
+        }
+    }
+
     /**
      * Get a message from messages.yml with prefix
      * @param path Path to message in messages.yml
@@ -1,32 +1,40 @@
 package com.tgrestart.manager;
 
 import com.tgrestart.TGRestart;
-import org.bukkit.Bukkit;
+import com.tgrestart.diagnostic.ShutdownWatchdog;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.title.Title;
+import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
 
-import java.util.HashSet;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Manages the restart timer and execution
  */
 public class RestartManager {
 
-    private final TGRestart plugin;
+    private final RestartPlatform platform;
     private BukkitTask restartTask;
-    private int remainingSeconds;
+    private CountdownTimer countdown;
     private boolean restartScheduled;
-    private final Set<Integer> broadcastedIntervals;
-    private final Set<Integer> shownTitleIntervals;
-    private final Set<Integer> shownActionBarIntervals;
+    private final List<BukkitTask> deferredDisplayTasks;
 
     public RestartManager(TGRestart plugin) {
-        this.plugin = plugin;
+        this(new BukkitRestartPlatform(plugin));
+    }
+
+    RestartManager(RestartPlatform platform) {
+        this.platform = platform;
         this.restartScheduled = false;
-        this.broadcastedIntervals = new HashSet<>();
-        this.shownTitleIntervals = new HashSet<>();
-        this.shownActionBarIntervals = new HashSet<>();
+        this.deferredDisplayTasks = new ArrayList<>();
     }
 
     /**
@@ -35,47 +43,44 @@ public class RestartManager {
      */
     public void scheduleRestart(int seconds) {
         if (restartScheduled) {
-            plugin.getLogger().warning("Attempted to schedule restart while one is already active");
+            platform.getLogger().warning("Attempted to schedule restart while one is already active");
             return;
         }
 
-        this.remainingSeconds = seconds;
+        this.countdown = new CountdownTimer(
+                seconds,
+                platform.getConfig().getIntegerList("title-intervals"),
+                platform.getConfig().getIntegerList("action-bar-intervals"),
+                platform.getConfig().getIntegerList("broadcast-intervals")
+        );
         this.restartScheduled = true;
-        this.broadcastedIntervals.clear();
-        this.shownTitleIntervals.clear();
-        this.shownActionBarIntervals.clear();
 
-        plugin.debug("Scheduling restart in " + seconds + " seconds");
+        platform.debug("Scheduling restart in " + seconds + " seconds");
 
         // Send initial announcement
-        plugin.getMessageManager().broadcastScheduleMessage(formatTime(seconds));
+        platform.broadcastScheduleMessage(formatTime(seconds));
 
         // Get update interval from config (default 20 ticks = 1 second)
-        int updateInterval = plugin.getConfig().getInt("update-interval", 20);
+        int updateInterval = Math.max(1, platform.getConfig().getInt("update-interval", 20));
 
         // Start countdown task
-        restartTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            if (remainingSeconds <= 0) {
-                executeRestart();
-                return;
-            }
-
-            // Send countdown displays
-            String timeString = formatTime(remainingSeconds);
-
-            // Send title only at configured intervals
-            sendTitleIfNeeded(remainingSeconds, timeString);
-
-            // Send action bar only at configured intervals
-            sendActionBarIfNeeded(remainingSeconds, timeString);
+        restartTask = platform.runTaskTimer(() -> tickCountdown(updateInterval), 0L, updateInterval);
+    }
 
-            // Check if we should send a broadcast message
-            sendBroadcastIfNeeded(remainingSeconds);
+    /**
+     * Advance the countdown by one task run and send the displays due
+     * @param updateInterval Ticks between countdown task runs
+     */
+    private void tickCountdown(int updateInterval) {
+        CountdownTimer.Step step = countdown.advance(updateInterval);
 
-            // Decrement timer
-            remainingSeconds--;
+        if (step.hasDisplays()) {
+            sendCountdownDisplays(step);
+        }
 
-        }, 0L, updateInterval);
+        if (step.isFinished()) {
+            executeRestart();
+        }
     }
 
     /**
@@ -86,7 +91,7 @@ public class RestartManager {
             return;
         }
 
-        plugin.debug("Cancelling restart");
+        platform.debug("Cancelling restart");
 
         if (restartTask != null) {
             restartTask.cancel();
@@ -94,14 +99,11 @@ public class RestartManager {
         }
 
         restartScheduled = false;
-        broadcastedIntervals.clear();
-        shownTitleIntervals.clear();
-        shownActionBarIntervals.clear();
+        countdown.cancel();
+        cancelDeferredDisplays();
 
         // Send cancel message
-        plugin.getMessageManager().broadcast(
-                plugin.getMessageManager().getMessage("cancel-message")
-        );
+        platform.broadcastCancelMessage();
     }
 
     /**
@@ -117,55 +119,87 @@ public class RestartManager {
      * @return Remaining seconds
      */
     public int getRemainingSeconds() {
-        return remainingSeconds;
+        return countdown != null ? countdown.getRemainingSeconds() : 0;
     }
 
     /**
-     * Send broadcast message if at a configured interval
-     * @param seconds Current remaining seconds
+     * Send the title, action bar and broadcast due in a countdown step,
+     * throttled as planned by the DisplayPlanner when under tick pressure
+     * @param step Displays due in this countdown run
      */
-    private void sendBroadcastIfNeeded(int seconds) {
-        List<Integer> intervals = plugin.getConfig().getIntegerList("broadcast-intervals");
-        if (intervals.contains(seconds) && !broadcastedIntervals.contains(seconds)) {
-            broadcastedIntervals.add(seconds);
-            plugin.getMessageManager().broadcastWarning(formatTime(seconds));
-            plugin.debug("Sent broadcast for " + seconds + " seconds remaining");
+    private void sendCountdownDisplays(CountdownTimer.Step step) {
+        DisplayPlanner planner = new DisplayPlanner(
+                platform.getConfig().getBoolean("display-throttling.enabled", true),
+                platform.getConfig().getDouble("display-throttling.mspt-threshold", 40.0),
+                platform.getConfig().getInt("display-throttling.critical-seconds", 10),
+                platform.getConfig().getInt("display-throttling.spread-ticks", 5)
+        );
+        Collection<? extends Player> onlinePlayers = platform.getOnlinePlayers();
+        DisplayPlanner.Plan plan = planner.plan(step, platform.getAverageTickTime(),
+                platform.countdownSubtitleShowsTime(), onlinePlayers.size());
+
+        int titleSecond = plan.getTitleSecond();
+        int actionBarSecond = plan.getActionBarSecond();
+        int broadcastSecond = plan.getBroadcastSecond();
+
+        if (!plan.isMerged()) {
+            if (titleSecond >= 0) {
+                platform.sendCountdownTitle(formatTime(titleSecond));
+                platform.debug("Sent title for " + titleSecond + " seconds remaining");
+            }
+            if (actionBarSecond >= 0) {
+                platform.sendActionBar(formatTime(actionBarSecond));
+                platform.debug("Sent action bar for " + actionBarSecond + " seconds remaining");
+            }
+            if (broadcastSecond >= 0) {
+                platform.broadcastWarning(formatTime(broadcastSecond));
+                platform.debug("Sent broadcast for " + broadcastSecond + " seconds remaining");
+            }
+            return;
         }
-    }
 
-    /**
-     * Send title if at a configured interval
-     * @param seconds Current remaining seconds
-     * @param timeString Formatted time string
-     */
-    private void sendTitleIfNeeded(int seconds, String timeString) {
-        List<Integer> intervals = plugin.getConfig().getIntegerList("title-intervals");
-        if (intervals.contains(seconds) && !shownTitleIntervals.contains(seconds)) {
-            shownTitleIntervals.add(seconds);
-            plugin.getMessageManager().sendCountdownTitle(timeString);
-            plugin.debug("Sent title for " + seconds + " seconds remaining");
+        Title title = titleSecond >= 0 ? platform.buildCountdownTitle(formatTime(titleSecond)) : null;
+        Component actionBar = actionBarSecond >= 0 ? platform.buildActionBar(formatTime(actionBarSecond)) : null;
+        Component chat = broadcastSecond >= 0 ? platform.buildWarning(formatTime(broadcastSecond)) : null;
+
+        if (title == null && actionBar == null && chat == null) {
+            return;
         }
+
+        if (chat != null) {
+            platform.sendConsoleMessage(chat);
+        }
+
+        deferredDisplayTasks.removeIf(task -> !platform.isQueued(task));
+
+        List<Player> players = new ArrayList<>(onlinePlayers);
+        for (DisplayPlanner.Chunk planned : plan.getChunks()) {
+            List<Player> chunk = players.subList(planned.getFromIndex(), planned.getToIndex());
+            if (planned.getDelay() == 0) {
+                platform.sendCountdownDisplays(chunk, title, actionBar, chat);
+                continue;
+            }
+            deferredDisplayTasks.add(platform.runTaskLater(
+                    () -> platform.sendCountdownDisplays(chunk, title, actionBar, chat), planned.getDelay()));
+        }
+        platform.debug("Sent merged displays in " + plan.getChunks().size() + " chunks under tick pressure");
     }
 
     /**
-     * Send action bar if at a configured interval
-     * @param seconds Current remaining seconds
-     * @param timeString Formatted time string
+     * Cancel display chunks still waiting to be sent
      */
-    private void sendActionBarIfNeeded(int seconds, String timeString) {
-        List<Integer> intervals = plugin.getConfig().getIntegerList("action-bar-intervals");
-        if (intervals.contains(seconds) && !shownActionBarIntervals.contains(seconds)) {
-            shownActionBarIntervals.add(seconds);
-            plugin.getMessageManager().sendActionBar(timeString);
-            plugin.debug("Sent action bar for " + seconds + " seconds remaining");
+    private void cancelDeferredDisplays() {
+        for (BukkitTask task : deferredDisplayTasks) {
+            task.cancel();
         }
+        deferredDisplayTasks.clear();
     }
 
     /**
      * Execute the restart
      */
     private void executeRestart() {
-        plugin.debug("Executing restart");
+        platform.debug("Executing restart");
 
         if (restartTask != null) {
             restartTask.cancel();
@@ -173,23 +207,30 @@ public class RestartManager {
         }
 
         restartScheduled = false;
+        cancelDeferredDisplays();
 
         // Send final title
-        plugin.getMessageManager().sendFinalTitle();
+        platform.sendFinalTitle();
+
+        // Capture the flight recording from before the restart
+        CompletableFuture<Void> recordingDump = platform.dumpFlightRecording();
 
         // Execute pre-restart commands
-        List<String> preCommands = plugin.getConfig().getStringList("pre-restart-commands");
+        List<String> preCommands = platform.getConfig().getStringList("pre-restart-commands");
         for (String command : preCommands) {
-            plugin.debug("Executing pre-restart command: " + command);
-            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
+            platform.debug("Executing pre-restart command: " + command);
+            platform.dispatchConsoleCommand(command);
         }
 
         // Kick all players
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            Bukkit.getOnlinePlayers().forEach(player -> 
-                player.kick(plugin.getMessageManager().getKickMessage())
+        platform.runTaskLater(() -> {
+            platform.getOnlinePlayers().forEach(player ->
+                player.kick(platform.getKickMessage())
             );
 
+            // Give the flight recording a bounded time to be written before shutting down
+            awaitFlightRecording(recordingDump);
+
             // Execute restart based on configured method
             executeRestartMethod();
 
@@ -200,35 +241,77 @@ public class RestartManager {
      * Execute the configured restart method
      */
     private void executeRestartMethod() {
-        String method = plugin.getConfig().getString("restart-method", "SPIGOT_RESTART").toUpperCase();
-        plugin.debug("Using restart method: " + method);
+        String method = platform.getConfig().getString("restart-method", "SPIGOT_RESTART").toUpperCase();
+        platform.debug("Using restart method: " + method);
 
         switch (method) {
             case "BUKKIT_SHUTDOWN":
-                Bukkit.getScheduler().runTaskLater(plugin, Bukkit::shutdown, 20L);
+                platform.runTaskLater(() -> {
+                    armShutdownWatchdog();
+                    platform.shutdown();
+                }, 20L);
                 break;
 
             case "SPIGOT_RESTART":
-                Bukkit.getScheduler().runTaskLater(plugin, () -> Bukkit.spigot().restart(), 20L);
+                platform.runTaskLater(() -> {
+                    armShutdownWatchdog();
+                    platform.restart();
+                }, 20L);
                 break;
 
             case "COMMANDS_ONLY":
-                List<String> commands = plugin.getConfig().getStringList("restart-commands");
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                List<String> commands = platform.getConfig().getStringList("restart-commands");
+                platform.runTaskLater(() -> {
                     for (String command : commands) {
-                        plugin.debug("Executing restart command: " + command);
-                        Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
+                        platform.debug("Executing restart command: " + command);
+                        platform.dispatchConsoleCommand(command);
                     }
                 }, 20L);
                 break;
 
             default:
-                plugin.getLogger().warning("Unknown restart method: " + method + ". Using SPIGOT_RESTART");
-                Bukkit.getScheduler().runTaskLater(plugin, () -> Bukkit.spigot().restart(), 20L);
+                platform.getLogger().warning("Unknown restart method: " + method + ". Using SPIGOT_RESTART");
+                platform.runTaskLater(() -> {
+                    armShutdownWatchdog();
+                    platform.restart();
+                }, 20L);
                 break;
         }
     }
 
+    /**
+     * Wait for the flight recording dump, at most flight-recorder.dump-timeout-seconds.
+     * Runs on the main thread, so a slow dump must not hold up the shutdown
+     * and its watchdog indefinitely.
+     * @param recordingDump Future of the running dump
+     */
+    private void awaitFlightRecording(CompletableFuture<Void> recordingDump) {
+        int timeoutSeconds = Math.max(1, platform.getConfig().getInt("flight-recorder.dump-timeout-seconds", 10));
+        try {
+            recordingDump.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            platform.getLogger().warning("Flight recording dump did not finish within " + timeoutSeconds
+                    + "s, restarting without waiting for it");
+        } catch (ExecutionException e) {
+            platform.getLogger().warning("Failed to dump flight recording: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Arm the shutdown watchdog if enabled, so a hanging shutdown is halted
+     */
+    private void armShutdownWatchdog() {
+        if (!platform.getConfig().getBoolean("shutdown-watchdog.enabled", false)) {
+            return;
+        }
+
+        int timeoutSeconds = Math.max(1, platform.getConfig().getInt("shutdown-watchdog.timeout-seconds", 120));
+        File dumpFolder = new File(platform.getDataFolder(), "thread-dumps");
+        new ShutdownWatchdog(dumpFolder, timeoutSeconds, platform.getLogger()).arm();
+    }
+
     /**
      * Format seconds into a readable time string
      * @param seconds Seconds to format
@@ -0,0 +1,162 @@
+package com.tgrestart.manager;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.title.Title;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * Server, scheduler and message calls made by the RestartManager.
+ * Lets the restart flow be driven against a simulated server in tests.
+ */
+interface RestartPlatform {
+
+    /**
+     * @return Plugin configuration
+     */
+    FileConfiguration getConfig();
+
+    /**
+     * @return Plugin logger
+     */
+    Logger getLogger();
+
+    /**
+     * Log debug message if debug mode is enabled
+     * @param message Message to log
+     */
+    void debug(String message);
+
+    /**
+     * @return Plugin data folder
+     */
+    File getDataFolder();
+
+    /**
+     * Run a task on the main thread every period ticks
+     * @param task Task to run
+     * @param delay Ticks before the first run
+     * @param period Ticks between runs
+     * @return Scheduled task
+     */
+    BukkitTask runTaskTimer(Runnable task, long delay, long period);
+
+    /**
+     * Run a task on the main thread after a delay
+     * @param task Task to run
+     * @param delay Ticks before the run
+     * @return Scheduled task
+     */
+    BukkitTask runTaskLater(Runnable task, long delay);
+
+    /**
+     * Check if a task is still waiting to run
+     * @param task Task to check
+     * @return True if the task is queued
+     */
+    boolean isQueued(BukkitTask task);
+
+    /**
+     * @return Average tick time in milliseconds
+     */
+    double getAverageTickTime();
+
+    /**
+     * @return Players currently online
+     */
+    Collection<? extends Player> getOnlinePlayers();
+
+    /**
+     * Send a message to the console
+     * @param message Message to send
+     */
+    void sendConsoleMessage(Component message);
+
+    /**
+     * Run a command as the console
+     * @param command Command to run
+     */
+    void dispatchConsoleCommand(String command);
+
+    /**
+     * Stop the server
+     */
+    void shutdown();
+
+    /**
+     * Restart the server using Spigot's restart script
+     */
+    void restart();
+
+    /**
+     * Dump the flight recording taken before the restart
+     * @return Future completed once the dump has been written or has failed
+     */
+    CompletableFuture<Void> dumpFlightRecording();
+
+    /**
+     * @see MessageManager#broadcastScheduleMessage(String)
+     */
+    void broadcastScheduleMessage(String timeString);
+
+    /**
+     * Broadcast the cancel message from messages.yml
+     */
+    void broadcastCancelMessage();
+
+    /**
+     * @see MessageManager#sendCountdownTitle(String)
+     */
+    void sendCountdownTitle(String timeString);
+
+    /**
+     * @see MessageManager#sendActionBar(String)
+     */
+    void sendActionBar(String timeString);
+
+    /**
+     * @see MessageManager#broadcastWarning(String)
+     */
+    void broadcastWarning(String timeString);
+
+    /**
+     * @see MessageManager#buildCountdownTitle(String)
+     */
+    Title buildCountdownTitle(String timeString);
+
+    /**
+     * @see MessageManager#buildActionBar(String)
+     */
+    Component buildActionBar(String timeString);
+
+    /**
+     * @see MessageManager#buildWarning(String)
+     */
+    Component buildWarning(String timeString);
+
+    /**
+     * @see MessageManager#countdownSubtitleShowsTime()
+     */
+    boolean countdownSubtitleShowsTime();
+
+    /**
+     * @see MessageManager#sendCountdownDisplays(Collection, Title, Component, Component)
+     */
+    void sendCountdownDisplays(Collection<? extends Player> players, Title title, Component actionBar, Component chat);
+
+    /**
+     * @see MessageManager#sendFinalTitle()
+     */
+    void sendFinalTitle();
+
+    /**
+     * @see MessageManager#getKickMessage()
+     */
+    Component getKickMessage();
+}
@@ -0,0 +1,128 @@
+package com.tgrestart.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks countdown timing and which milestones each task run reports
+ */
+class CountdownTimerTest {
+
+    private static final List<Integer> INTERVALS = List.of(3600, 600, 60, 10, 5, 4, 3, 2, 1);
+
+    @Test
+    void everyMilestoneFiresOnceOnItsSecond() {
+        Run run = Run.of(new CountdownTimer(120, INTERVALS, INTERVALS, INTERVALS), 20, -1);
+
+        assertEquals(List.of(60, 10, 5, 4, 3, 2, 1), run.titles);
+        assertEquals(List.of(60, 10, 5, 4, 3, 2, 1), run.actionBars);
+        assertEquals(List.of(60, 10, 5, 4, 3, 2, 1), run.broadcasts);
+        for (int i = 0; i < run.titles.size(); i++) {
+            assertEquals((120 - run.titles.get(i)) * CountdownTimer.TICKS_PER_SECOND, (int) run.titleTicks.get(i));
+        }
+        assertEquals(120 * CountdownTimer.TICKS_PER_SECOND, run.finishTick);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 7, 10, 20, 30, 40, 100})
+    void countdownDoesNotDriftWithUpdateInterval(int updateInterval) {
+        Run run = Run.of(new CountdownTimer(60, INTERVALS, INTERVALS, INTERVALS), updateInterval, -1);
+
+        int expectedTick = 60 * CountdownTimer.TICKS_PER_SECOND;
+        assertTrue(run.finishTick >= expectedTick, "finished early at tick " + run.finishTick);
+        assertTrue(run.finishTick < expectedTick + updateInterval, "finished late at tick " + run.finishTick);
+    }
+
+    /**
+     * With an update interval above 20 ticks several seconds pass per run.
+     * Only the latest due title and action bar are sent, and at most one
+     * catch-up broadcast; a countdown title due in the run that finishes is
+     * replaced by the final title, but its broadcast is still sent.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "30, '60,10,5,3,2', '60,10,5,3,2,1'",
+            "40, '60,10,4,2', '60,10,4,2,1'",
+            "100, '60,10,5', '60,10,5,1'"
+    })
+    void longUpdateIntervalSendsLatestDisplayPerRun(int updateInterval, String titles, String broadcasts) {
+        Run run = Run.of(new CountdownTimer(60, INTERVALS, INTERVALS, INTERVALS), updateInterval, -1);
+
+        assertEquals(parse(titles), run.titles);
+        assertEquals(parse(titles), run.actionBars);
+        assertEquals(parse(broadcasts), run.broadcasts);
+    }
+
+    @Test
+    void nothingIsReportedAfterCancel() {
+        CountdownTimer timer = new CountdownTimer(30, INTERVALS, INTERVALS, INTERVALS);
+        Run run = Run.of(timer, 20, 26 * CountdownTimer.TICKS_PER_SECOND);
+
+        assertEquals(List.of(10, 5), run.titles);
+        assertEquals(List.of(10, 5), run.broadcasts);
+        assertEquals(-1, run.finishTick);
+        assertFalse(timer.advance(20).hasDisplays());
+        assertFalse(timer.advance(20).isFinished());
+    }
+
+    private static List<Integer> parse(String seconds) {
+        return Arrays.stream(seconds.split(",")).map(Integer::parseInt).collect(Collectors.toList());
+    }
+
+    /**
+     * Result of driving a countdown tick by tick
+     */
+    private static final class Run {
+
+        private static final int MAX_TICKS = 2 * 3600 * CountdownTimer.TICKS_PER_SECOND;
+
+        private final List<Integer> titles = new ArrayList<>();
+        private final List<Integer> titleTicks = new ArrayList<>();
+        private final List<Integer> actionBars = new ArrayList<>();
+        private final List<Integer> broadcasts = new ArrayList<>();
+        private int finishTick = -1;
+
+        /**
+         * @param timer Countdown to drive
+         * @param updateInterval Ticks between countdown task runs
+         * @param cancelTick Tick to cancel the countdown at, or -1 to run to completion
+         * @return Displays reported by the countdown
+         */
+        static Run of(CountdownTimer timer, int updateInterval, int cancelTick) {
+            Run run = new Run();
+            for (int tick = 0; tick < MAX_TICKS; tick += updateInterval) {
+                if (cancelTick >= 0 && tick >= cancelTick) {
+                    timer.cancel();
+                }
+
+                CountdownTimer.Step step = timer.advance(updateInterval);
+                if (step.getTitleSecond() >= 0) {
+                    run.titles.add(step.getTitleSecond());
+                    run.titleTicks.add(tick);
+                }
+                if (step.getActionBarSecond() >= 0) {
+                    run.actionBars.add(step.getActionBarSecond());
+                }
+                if (step.getBroadcastSecond() >= 0) {
+                    run.broadcasts.add(step.getBroadcastSecond());
+                }
+                if (step.isFinished()) {
+                    run.finishTick = tick;
+                    break;
+                }
+            }
+            return run;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.tgrestart.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks which displays are sent, dropped and spread under tick pressure
+ */
+class DisplayPlannerTest {
+
+    private static final DisplayPlanner PLANNER = new DisplayPlanner(true, 40.0, 10, 5);
+
+    @Test
+    void belowThresholdSendsEveryDisplaySeparately() {
+        DisplayPlanner.Plan plan = PLANNER.plan(step(600, 600, 600), 39.9, true, 2000);
+
+        assertFalse(plan.isMerged());
+        assertEquals(600, plan.getTitleSecond());
+        assertEquals(600, plan.getActionBarSecond());
+        assertEquals(600, plan.getBroadcastSecond());
+        assertTrue(plan.getChunks().isEmpty());
+    }
+
+    @Test
+    void disabledNeverThrottles() {
+        DisplayPlanner planner = new DisplayPlanner(false, 40.0, 10, 5);
+
+        DisplayPlanner.Plan plan = planner.plan(step(600, 600, 600), 200.0, true, 2000);
+
+        assertFalse(plan.isMerged());
+        assertEquals(600, plan.getActionBarSecond());
+    }
+
+    @Test
+    void atThresholdMergesDisplays() {
+        DisplayPlanner.Plan plan = PLANNER.plan(step(600, -1, 600), 40.0, true, 2000);
+
+        assertTrue(plan.isMerged());
+        assertEquals(600, plan.getTitleSecond());
+        assertEquals(600, plan.getBroadcastSecond());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 5, 1})
+    void criticalSecondsKeepEveryDisplayInOnePass(int second) {
+        DisplayPlanner.Plan plan = PLANNER.plan(step(second, second, second), 80.0, true, 2000);
+
+        assertTrue(plan.isMerged());
+        assertEquals(second, plan.getTitleSecond());
+        assertEquals(second, plan.getActionBarSecond());
+        assertEquals(second, plan.getBroadcastSecond());
+        assertChunks(plan, 2000, 1);
+    }
+
+    @Test
+    void aboveCriticalDropsActionBarRepeatingSubtitleTime() {
+        DisplayPlanner.Plan plan = PLANNER.plan(step(11, 11, 11), 80.0, true, 2000);
+
+        assertEquals(11, plan.getTitleSecond());
+        assertEquals(-1, plan.getActionBarSecond());
+        assertEquals(11, plan.getBroadcastSecond());
+    }
+
+    @Test
+    void actionBarKeptWhenSubtitleDoesNotShowTime() {
+        DisplayPlanner.Plan plan = PLANNER.plan(step(600, 600, -1), 80.0, false, 2000);
+
+        assertEquals(600, plan.getTitleSecond());
+        assertEquals(600, plan.getActionBarSecond());
+    }
+
+    @Test
+    void actionBarKeptWhenNoTitleIsSent() {
+        DisplayPlanner.Plan plan = PLANNER.plan(step(-1, 600, 600), 80.0, true, 2000);
+
+        assertEquals(600, plan.getActionBarSecond());
+    }
+
+    @Test
+    void nonCriticalDisplaysAreSpreadAcrossTicks() {
+        DisplayPlanner.Plan plan = PLANNER.plan(step(600, -1, 600), 80.0, true, 2000);
+
+        assertChunks(plan, 2000, 5);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {19, 20, 50, 1000})
+    void spreadFinishesWithinTheSecond(int spreadTicks) {
+        DisplayPlanner planner = new DisplayPlanner(true, 40.0, 10, spreadTicks);
+
+        DisplayPlanner.Plan plan = planner.plan(step(600, -1, 600), 80.0, true, 2000);
+
+        assertChunks(plan, 2000, DisplayPlanner.MAX_SPREAD_TICKS);
+        for (DisplayPlanner.Chunk chunk : plan.getChunks()) {
+            assertTrue(chunk.getDelay() < DisplayPlanner.MAX_SPREAD_TICKS, "chunk sent at delay " + chunk.getDelay());
+        }
+    }
+
+    @Test
+    void fewerPlayersThanSpreadTicksAreSentInOnePass() {
+        DisplayPlanner.Plan plan = PLANNER.plan(step(600, -1, 600), 80.0, true, 4);
+
+        assertChunks(plan, 4, 1);
+    }
+
+    private static CountdownTimer.Step step(int titleSecond, int actionBarSecond, int broadcastSecond) {
+        return new CountdownTimer.Step(titleSecond, actionBarSecond, broadcastSecond, false);
+    }
+
+    /**
+     * Check the chunks cover every player exactly once, in order, one tick apart
+     */
+    private static void assertChunks(DisplayPlanner.Plan plan, int playerCount, int expectedChunks) {
+        List<DisplayPlanner.Chunk> chunks = plan.getChunks();
+        assertEquals(expectedChunks, chunks.size());
+
+        int next = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            DisplayPlanner.Chunk chunk = chunks.get(i);
+            assertEquals(next, chunk.getFromIndex());
+            assertTrue(chunk.getToIndex() > chunk.getFromIndex());
+            assertEquals(i, chunk.getDelay());
+            next = chunk.getToIndex();
+        }
+        assertEquals(playerCount, next);
+    }
+}
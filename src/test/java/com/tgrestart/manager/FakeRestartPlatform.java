@@ -0,0 +1,419 @@
+package com.tgrestart.manager;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.title.Title;
+import org.bukkit.Server;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory server for driving the RestartManager tick by tick.
+ * Records every display and kick each simulated player receives, and measures
+ * the time and memory allocated by the plugin's tasks on every tick.
+ */
+class FakeRestartPlatform implements RestartPlatform {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    final List<FakePlayer> players = new ArrayList<>();
+    final List<String> consoleCommands = new ArrayList<>();
+    final List<Integer> shutdownTicks = new ArrayList<>();
+    final List<Integer> restartTicks = new ArrayList<>();
+    double averageTickTime = 20.0;
+    CompletableFuture<Void> flightRecording = CompletableFuture.completedFuture(null);
+    int currentTick;
+    int receipts;
+    long maxTickNanos;
+    long maxIdleTickBytes;
+    long totalTickBytes;
+
+    private final Map<Player, FakePlayer> playersByHandle = new IdentityHashMap<>();
+    private final List<FakeTask> tasks = new ArrayList<>();
+    private FileConfiguration config;
+    private int nextTaskId = 1;
+
+    FakeRestartPlatform(int playerCount, FileConfiguration config) {
+        this.config = config;
+        for (int i = 0; i < playerCount; i++) {
+            addPlayer("player" + i, true);
+        }
+    }
+
+    /**
+     * Add a simulated player
+     * @param name Player name
+     * @param canSeeBroadcasts Whether the player has the broadcast permission
+     * @return Added player
+     */
+    FakePlayer addPlayer(String name, boolean canSeeBroadcasts) {
+        FakePlayer player = new FakePlayer(name, canSeeBroadcasts);
+        players.add(player);
+        playersByHandle.put(player.handle, player);
+        return player;
+    }
+
+    /**
+     * Replace the config, as a plugin reload does
+     * @param config New config
+     */
+    void setConfig(FileConfiguration config) {
+        this.config = config;
+    }
+
+    /**
+     * Run the scheduler until the given tick
+     * @param tick Last tick to run
+     */
+    void runUntil(int tick) {
+        while (currentTick < tick) {
+            runTick();
+        }
+    }
+
+    /**
+     * Advance one tick and run every task due on it
+     */
+    void runTick() {
+        currentTick++;
+        int receiptsBefore = receipts;
+        long tickNanos = 0;
+        long tickBytes = 0;
+
+        for (FakeTask task : new ArrayList<>(tasks)) {
+            if (task.cancelled || task.nextTick != currentTick) {
+                continue;
+            }
+
+            long startBytes = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            task.runnable.run();
+            tickNanos += System.nanoTime() - start;
+            tickBytes += THREADS.getCurrentThreadAllocatedBytes() - startBytes;
+
+            if (task.period > 0) {
+                task.nextTick += task.period;
+            } else {
+                task.done = true;
+            }
+        }
+        tasks.removeIf(task -> task.done || task.cancelled);
+
+        maxTickNanos = Math.max(maxTickNanos, tickNanos);
+        totalTickBytes += tickBytes;
+        if (receipts == receiptsBefore) {
+            maxIdleTickBytes = Math.max(maxIdleTickBytes, tickBytes);
+        }
+    }
+
+    @Override
+    public FileConfiguration getConfig() {
+        return config;
+    }
+
+    @Override
+    public Logger getLogger() {
+        return Logger.getLogger("TGRestartTest");
+    }
+
+    @Override
+    public void debug(String message) {
+    }
+
+    @Override
+    public File getDataFolder() {
+        return new File("target/test-data");
+    }
+
+    @Override
+    public BukkitTask runTaskTimer(Runnable task, long delay, long period) {
+        return schedule(task, delay, period);
+    }
+
+    @Override
+    public BukkitTask runTaskLater(Runnable task, long delay) {
+        return schedule(task, delay, -1);
+    }
+
+    private FakeTask schedule(Runnable runnable, long delay, long period) {
+        // Like the Bukkit scheduler, a task never runs on the tick it was scheduled
+        FakeTask task = new FakeTask(nextTaskId++, runnable, currentTick + (int) Math.max(1, delay), (int) period);
+        tasks.add(task);
+        return task;
+    }
+
+    @Override
+    public boolean isQueued(BukkitTask task) {
+        return tasks.contains(task);
+    }
+
+    @Override
+    public double getAverageTickTime() {
+        return averageTickTime;
+    }
+
+    @Override
+    public Collection<? extends Player> getOnlinePlayers() {
+        return players.stream()
+                .filter(player -> player.online)
+                .map(player -> player.handle)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void sendConsoleMessage(Component message) {
+    }
+
+    @Override
+    public void dispatchConsoleCommand(String command) {
+        consoleCommands.add(command);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdownTicks.add(currentTick);
+    }
+
+    @Override
+    public void restart() {
+        restartTicks.add(currentTick);
+    }
+
+    @Override
+    public CompletableFuture<Void> dumpFlightRecording() {
+        return flightRecording;
+    }
+
+    @Override
+    public void broadcastScheduleMessage(String timeString) {
+        receiveAll("schedule", timeString);
+    }
+
+    @Override
+    public void broadcastCancelMessage() {
+        receiveAll("cancel", "");
+    }
+
+    @Override
+    public void sendCountdownTitle(String timeString) {
+        receiveAll("title", timeString);
+    }
+
+    @Override
+    public void sendActionBar(String timeString) {
+        receiveAll("action-bar", timeString);
+    }
+
+    @Override
+    public void broadcastWarning(String timeString) {
+        for (FakePlayer player : players) {
+            if (player.online && player.hasPermission(Server.BROADCAST_CHANNEL_USERS)) {
+                player.receive("broadcast", timeString);
+            }
+        }
+    }
+
+    @Override
+    public Title buildCountdownTitle(String timeString) {
+        return config.getBoolean("titles.enabled", true) ? Title.title(Component.text(timeString), Component.empty()) : null;
+    }
+
+    @Override
+    public Component buildActionBar(String timeString) {
+        return Component.text(timeString);
+    }
+
+    @Override
+    public Component buildWarning(String timeString) {
+        return Component.text(timeString);
+    }
+
+    @Override
+    public boolean countdownSubtitleShowsTime() {
+        return config.getBoolean("titles.enabled", true)
+                && config.getString("titles.subtitle", "%time%").contains("%time%");
+    }
+
+    @Override
+    public void sendCountdownDisplays(Collection<? extends Player> targets, Title title, Component actionBar, Component chat) {
+        for (Player target : targets) {
+            FakePlayer player = playersByHandle.get(target);
+            if (!player.online) {
+                continue;
+            }
+            if (title != null) {
+                player.receive("title", ((TextComponent) title.title()).content());
+            }
+            if (actionBar != null) {
+                player.receive("action-bar", ((TextComponent) actionBar).content());
+            }
+            if (chat != null && target.hasPermission(Server.BROADCAST_CHANNEL_USERS)) {
+                player.receive("broadcast", ((TextComponent) chat).content());
+            }
+        }
+    }
+
+    @Override
+    public void sendFinalTitle() {
+        receiveAll("final-title", "");
+    }
+
+    @Override
+    public Component getKickMessage() {
+        return Component.text("restarting");
+    }
+
+    private void receiveAll(String kind, String text) {
+        for (FakePlayer player : players) {
+            if (player.online) {
+                player.receive(kind, text);
+            }
+        }
+    }
+
+    /**
+     * Something a player received, and on which tick
+     */
+    static final class Receipt {
+
+        final String kind;
+        final String text;
+        final int tick;
+
+        Receipt(String kind, String text, int tick) {
+            this.kind = kind;
+            this.text = text;
+            this.tick = tick;
+        }
+    }
+
+    /**
+     * Simulated player backed by a Player proxy that records kicks
+     */
+    final class FakePlayer {
+
+        final String name;
+        final boolean canSeeBroadcasts;
+        final List<Receipt> receipts = new ArrayList<>();
+        final Player handle;
+        boolean online = true;
+
+        FakePlayer(String name, boolean canSeeBroadcasts) {
+            this.name = name;
+            this.canSeeBroadcasts = canSeeBroadcasts;
+            this.handle = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "kick":
+                                receive("kick", "");
+                                online = false;
+                                return null;
+                            case "isOnline":
+                                return online;
+                            case "hasPermission":
+                                return hasPermission((String) args[0]);
+                            case "getName":
+                            case "toString":
+                                return name;
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        boolean hasPermission(String permission) {
+            return !Server.BROADCAST_CHANNEL_USERS.equals(permission) || canSeeBroadcasts;
+        }
+
+        void receive(String kind, String text) {
+            receipts.add(new Receipt(kind, text, currentTick));
+            FakeRestartPlatform.this.receipts++;
+        }
+
+        /**
+         * @param kind Kind of display
+         * @return Texts of that kind in the order they were received
+         */
+        List<String> received(String kind) {
+            return receipts.stream()
+                    .filter(receipt -> receipt.kind.equals(kind))
+                    .map(receipt -> receipt.text)
+                    .collect(Collectors.toList());
+        }
+
+        /**
+         * @param kind Kind of display
+         * @return Ticks on which displays of that kind were received
+         */
+        List<Integer> ticks(String kind) {
+            return receipts.stream()
+                    .filter(receipt -> receipt.kind.equals(kind))
+                    .map(receipt -> receipt.tick)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Scheduled task in the fake scheduler
+     */
+    private static final class FakeTask implements BukkitTask {
+
+        private final int id;
+        private final Runnable runnable;
+        private final int period;
+        private int nextTick;
+        private boolean cancelled;
+        private boolean done;
+
+        FakeTask(int id, Runnable runnable, int nextTick, int period) {
+            this.id = id;
+            this.runnable = runnable;
+            this.nextTick = nextTick;
+            this.period = period;
+        }
+
+        @Override
+        public int getTaskId() {
+            return id;
+        }
+
+        @Override
+        public Plugin getOwner() {
+            return null;
+        }
+
+        @Override
+        public boolean isSync() {
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
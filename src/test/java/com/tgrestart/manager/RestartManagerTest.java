@@ -0,0 +1,265 @@
+package com.tgrestart.manager;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Drives the RestartManager through full restarts against a simulated server
+ */
+class RestartManagerTest {
+
+    private static final List<Integer> INTERVALS = List.of(600, 60, 10, 5, 4, 3, 2, 1);
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 2000})
+    void fullCountdownReachesEveryPlayerExactlyOnce(int playerCount) {
+        FakeRestartPlatform server = new FakeRestartPlatform(playerCount, config());
+        RestartManager manager = new RestartManager(server);
+
+        manager.scheduleRestart(120);
+        server.runUntil(restartTick(120) + 100);
+
+        List<String> expected = List.of("1m", "10s", "5s", "4s", "3s", "2s", "1s");
+        for (FakeRestartPlatform.FakePlayer player : server.players) {
+            assertEquals(List.of("2m"), player.received("schedule"));
+            assertEquals(expected, player.received("title"));
+            assertEquals(expected, player.received("action-bar"));
+            assertEquals(expected, player.received("broadcast"));
+            assertEquals(1, player.received("final-title").size());
+            assertEquals(1, player.received("kick").size());
+        }
+        assertFalse(manager.isRestartScheduled());
+        assertEquals(List.of("save-all"), server.consoleCommands);
+        assertEquals(List.of(restartTick(120) + 60), server.shutdownTicks);
+        report("full countdown, " + playerCount + " players", server);
+    }
+
+    @Test
+    void milestonesAreSentOnTheirSecond() {
+        FakeRestartPlatform server = new FakeRestartPlatform(1, config());
+        RestartManager manager = new RestartManager(server);
+
+        manager.scheduleRestart(120);
+        server.runUntil(restartTick(120) + 100);
+
+        FakeRestartPlatform.FakePlayer player = server.players.get(0);
+        List<Integer> seconds = List.of(60, 10, 5, 4, 3, 2, 1);
+        for (int i = 0; i < seconds.size(); i++) {
+            assertEquals(secondTick(120, seconds.get(i)), (int) player.ticks("title").get(i));
+        }
+        assertEquals(List.of(restartTick(120)), player.ticks("final-title"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 2000})
+    void nothingIsSentAfterCancel(int playerCount) {
+        YamlConfiguration config = config();
+        config.set("display-throttling.spread-ticks", 5);
+        FakeRestartPlatform server = new FakeRestartPlatform(playerCount, config);
+        // Under tick pressure the 10 minute milestone is spread over several ticks
+        server.averageTickTime = 60.0;
+        RestartManager manager = new RestartManager(server);
+
+        manager.scheduleRestart(700);
+        int cancelTick = secondTick(700, 600);
+        server.runUntil(cancelTick);
+        manager.cancelRestart();
+        server.runUntil(restartTick(700) + 100);
+
+        int firstChunk = playerCount < 5 ? playerCount : (playerCount + 4) / 5;
+        int reached = 0;
+        for (FakeRestartPlatform.FakePlayer player : server.players) {
+            for (FakeRestartPlatform.Receipt receipt : player.receipts) {
+                assertTrue(receipt.tick <= cancelTick, receipt.kind + " sent at tick " + receipt.tick + " after cancel");
+            }
+            assertEquals(1, player.received("cancel").size());
+            assertTrue(player.received("kick").isEmpty());
+            reached += player.received("title").size();
+        }
+        assertEquals(firstChunk, reached);
+        assertTrue(server.shutdownTicks.isEmpty());
+        assertFalse(manager.isRestartScheduled());
+    }
+
+    @Test
+    void underPressureEveryPlayerGetsSpreadDisplaysWithinTheSecond() {
+        YamlConfiguration config = config();
+        config.set("display-throttling.spread-ticks", 50);
+        FakeRestartPlatform server = new FakeRestartPlatform(2000, config);
+        server.averageTickTime = 60.0;
+        RestartManager manager = new RestartManager(server);
+
+        manager.scheduleRestart(700);
+        server.runUntil(restartTick(700) + 100);
+
+        int milestoneTick = secondTick(700, 600);
+        for (FakeRestartPlatform.FakePlayer player : server.players) {
+            assertEquals(List.of("10m", "1m", "10s", "5s", "4s", "3s", "2s", "1s"), player.received("title"));
+            assertEquals(List.of("10s", "5s", "4s", "3s", "2s", "1s"), player.received("action-bar"));
+            int tick = player.ticks("title").get(0);
+            assertTrue(tick >= milestoneTick && tick < milestoneTick + DisplayPlanner.MAX_SPREAD_TICKS,
+                    "10m title sent at tick " + tick);
+            // Critical seconds go to every player on their own tick
+            assertEquals(secondTick(700, 5), (int) player.ticks("title").get(3));
+            assertEquals(1, player.received("final-title").size());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {20, 60})
+    void warningReachesTheSamePlayersWithAndWithoutPressure(int averageTickTime) {
+        FakeRestartPlatform server = new FakeRestartPlatform(10, config());
+        FakeRestartPlatform.FakePlayer muted = server.addPlayer("muted", false);
+        server.averageTickTime = averageTickTime;
+        RestartManager manager = new RestartManager(server);
+
+        manager.scheduleRestart(700);
+        server.runUntil(restartTick(700) + 100);
+
+        assertTrue(muted.received("broadcast").isEmpty());
+        assertEquals(8, muted.received("title").size());
+        for (FakeRestartPlatform.FakePlayer player : server.players) {
+            if (player != muted) {
+                assertEquals(8, player.received("broadcast").size());
+            }
+        }
+    }
+
+    @Test
+    void reloadDuringCountdownKeepsScheduledMilestones() {
+        FakeRestartPlatform server = new FakeRestartPlatform(100, config());
+        RestartManager manager = new RestartManager(server);
+
+        manager.scheduleRestart(30);
+        server.runUntil(secondTick(30, 15));
+
+        YamlConfiguration reloaded = config();
+        reloaded.set("title-intervals", List.of(20, 7));
+        reloaded.set("update-interval", 5);
+        reloaded.set("restart-method", "COMMANDS_ONLY");
+        reloaded.set("restart-commands", List.of("stop"));
+        server.setConfig(reloaded);
+        server.runUntil(restartTick(30) + 100);
+
+        for (FakeRestartPlatform.FakePlayer player : server.players) {
+            assertEquals(List.of("10s", "5s", "4s", "3s", "2s", "1s"), player.received("title"));
+            assertEquals(1, player.received("kick").size());
+        }
+        assertEquals(List.of("save-all", "stop"), server.consoleCommands);
+        assertTrue(server.shutdownTicks.isEmpty());
+    }
+
+    @Test
+    void secondScheduleWhileActiveIsIgnored() {
+        FakeRestartPlatform server = new FakeRestartPlatform(10, config());
+        RestartManager manager = new RestartManager(server);
+
+        manager.scheduleRestart(30);
+        server.runUntil(100);
+        manager.scheduleRestart(10);
+        server.runUntil(restartTick(30) + 100);
+
+        for (FakeRestartPlatform.FakePlayer player : server.players) {
+            assertEquals(List.of("30s"), player.received("schedule"));
+            assertEquals(1, player.received("final-title").size());
+        }
+        assertEquals(List.of(restartTick(30) + 60), server.shutdownTicks);
+    }
+
+    @Test
+    void spigotRestartMethodRestartsOnce() {
+        YamlConfiguration config = config();
+        config.set("restart-method", "SPIGOT_RESTART");
+        FakeRestartPlatform server = new FakeRestartPlatform(10, config);
+        RestartManager manager = new RestartManager(server);
+
+        manager.scheduleRestart(5);
+        server.runUntil(restartTick(5) + 100);
+
+        assertEquals(List.of(restartTick(5) + 60), server.restartTicks);
+        assertTrue(server.shutdownTicks.isEmpty());
+    }
+
+    @Test
+    void stuckFlightRecordingDumpDoesNotBlockShutdown() {
+        YamlConfiguration config = config();
+        config.set("flight-recorder.dump-timeout-seconds", 1);
+        FakeRestartPlatform server = new FakeRestartPlatform(10, config);
+        server.flightRecording = new CompletableFuture<>();
+        RestartManager manager = new RestartManager(server);
+
+        manager.scheduleRestart(5);
+        long start = System.nanoTime();
+        server.runUntil(restartTick(5) + 100);
+
+        assertEquals(List.of(restartTick(5) + 60), server.shutdownTicks);
+        assertTrue(System.nanoTime() - start < 5_000_000_000L, "waited too long for the dump");
+    }
+
+    @Test
+    void countdownTicksWithoutDisplaysAllocateAlmostNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        // Warm up class loading and call sites so only steady-state ticks are measured
+        FakeRestartPlatform warmUp = new FakeRestartPlatform(10, config());
+        new RestartManager(warmUp).scheduleRestart(30);
+        warmUp.runUntil(restartTick(30) + 100);
+
+        FakeRestartPlatform server = new FakeRestartPlatform(2000, config());
+        new RestartManager(server).scheduleRestart(900);
+        server.runUntil(restartTick(900) + 100);
+
+        report("idle allocation, 2000 players", server);
+        assertTrue(server.maxIdleTickBytes < 2048, "idle tick allocated " + server.maxIdleTickBytes + " bytes");
+    }
+
+    /**
+     * @param seconds Seconds the restart was scheduled for
+     * @param second Remaining second
+     * @return Tick on which displays for that second are sent
+     */
+    private static int secondTick(int seconds, int second) {
+        // The countdown task first runs on the tick after scheduling
+        return 1 + (seconds - second) * CountdownTimer.TICKS_PER_SECOND;
+    }
+
+    /**
+     * @param seconds Seconds the restart was scheduled for
+     * @return Tick on which the restart executes
+     */
+    private static int restartTick(int seconds) {
+        return secondTick(seconds, 0);
+    }
+
+    private static void report(String scenario, FakeRestartPlatform server) {
+        System.out.printf("%s: max tick %.3f ms, max idle tick %d bytes, %d bytes total%n",
+                scenario, server.maxTickNanos / 1_000_000.0, server.maxIdleTickBytes, server.totalTickBytes);
+    }
+
+    private static YamlConfiguration config() {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("title-intervals", INTERVALS);
+        config.set("action-bar-intervals", INTERVALS);
+        config.set("broadcast-intervals", INTERVALS);
+        config.set("update-interval", 20);
+        config.set("pre-restart-commands", List.of("save-all"));
+        config.set("restart-method", "BUKKIT_SHUTDOWN");
+        config.set("display-throttling.enabled", true);
+        config.set("display-throttling.mspt-threshold", 40.0);
+        config.set("display-throttling.critical-seconds", 10);
+        config.set("display-throttling.spread-ticks", 5);
+        return config;
+    }
+}